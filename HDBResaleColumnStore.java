@@ -10,6 +10,13 @@ class HDBResaleColumnStore {
     private static final String OUTPUTCSV = "output/SortedResalePrices.csv";
     private static final Map<String, List<Long>> FILEINDICES = new HashMap<>();
 
+    // Approximate query settings
+    private static final int APPROX_SAMPLE_PER_STRATUM = 64; // reservoir size kept for each (month, town) stratum
+    private static final double APPROX_ERROR_BOUND = 0.05; // max relative half-width of the average price CI before falling back to an exact scan
+    private static final double APPROX_Z = 1.96; // z-score for 95% confidence intervals
+    private static final long APPROX_SEED = 4023L; // fixed seed so the sample is reproducible across runs
+    private static final Map<String, Stratum> SAMPLES = new HashMap<>();
+
     private static void ensureDirectoriesExist() {
         String[] directories = { "output", "column_store" };
         for (String dir : directories) {
@@ -200,6 +207,55 @@ class HDBResaleColumnStore {
         return zones;
     }
 
+    // Build a stratified sample for approximate queries. Strata are (month, town) over the rows that pass the area
+    // filter, so any year/month/town query maps to a handful of strata. Each stratum keeps its exact row count and a
+    // fixed-size reservoir sample of (price, area), which is enough to estimate the statistics with confidence intervals.
+    public static void buildStratifiedSample(int samplePerStratum) throws IOException {
+        SAMPLES.clear();
+        Random random = new Random(APPROX_SEED);
+
+        try (BufferedReader monthReader = new BufferedReader(new FileReader(DATA_DIR + "/month.csv"));
+                BufferedReader townReader = new BufferedReader(new FileReader(DATA_DIR + "/town.csv"));
+                BufferedReader areaReader = new BufferedReader(new FileReader(DATA_DIR + "/floor_area_sqm.csv"));
+                BufferedReader priceReader = new BufferedReader(new FileReader(DATA_DIR + "/resale_price.csv"))) {
+
+            String monthLine, townLine, areaLine, priceLine;
+            while ((monthLine = monthReader.readLine()) != null &&
+                    (townLine = townReader.readLine()) != null &&
+                    (areaLine = areaReader.readLine()) != null &&
+                    (priceLine = priceReader.readLine()) != null) {
+
+                // rows with anomalies were already reported during splitCSV, they cannot be sampled
+                if (monthLine.equals("na") || townLine.equals("na") || areaLine.equals("na") || priceLine.equals("na")) {
+                    continue;
+                }
+                double area = Double.parseDouble(areaLine);
+                if (area < 80) {
+                    continue;
+                }
+
+                Stratum stratum = SAMPLES.computeIfAbsent(monthLine + "|" + townLine.toUpperCase(), k -> new Stratum());
+                stratum.population++;
+                double[] row = { Double.parseDouble(priceLine), area };
+                if (stratum.sample.size() < samplePerStratum) {
+                    stratum.sample.add(row);
+                } else { // reservoir sampling: keep each row with probability samplePerStratum / population
+                    int slot = random.nextInt(stratum.population);
+                    if (slot < samplePerStratum) {
+                        stratum.sample.set(slot, row);
+                    }
+                }
+            }
+        }
+        System.out.println("Stratified sample built for " + SAMPLES.size() + " (month, town) strata.");
+    }
+
+    // A single stratum of the sample: exact number of qualifying rows and the sampled (price, area) rows
+    static class Stratum {
+        int population;
+        final List<double[]> sample = new ArrayList<>();
+    }
+
     //// QUERIES
     // Normal Query - This function performs a normal query on the dataset based on the year, month, town, and area
     public static void normalQuery(String matricNo, int year, int startMonth, String town) throws IOException {
@@ -261,6 +317,41 @@ class HDBResaleColumnStore {
                 "output/ScanResult_" + matricNo + "_ZMSS.csv");
     }
 
+    // Approximate Query - This function answers the query from the stratified sample without scanning the columns.
+    // If the average price confidence interval is wider than the error bound, it falls back to a zone mapping + shared scan.
+    public static void approxQuery(String matricNo, int year, int startMonth, String town, Map<String, Map<String, Integer>> zones,
+            double errorBound) throws IOException {
+        long startTime = System.nanoTime();
+        List<Stratum> strata = new ArrayList<>();
+        for (int month : new int[] { startMonth, startMonth + 1 }) {
+            Stratum stratum = SAMPLES.get(String.format("%04d-%02d", year, month) + "|" + town.toUpperCase());
+            if (stratum != null) {
+                strata.add(stratum);
+            }
+        }
+        Map<String, double[]> stats = computeApproxStatistics(strata);
+
+        double[] avgPrice = stats.get("Average Price");
+        if (avgPrice[0] > 0 && (avgPrice[2] - avgPrice[1]) / 2 > errorBound * avgPrice[0]) {
+            System.out.println("Approximate answer exceeds error bound of " + (errorBound * 100)
+                    + "%, falling back to exact scan...");
+            String yearKey = String.valueOf(year);
+            List<String[]> filteredData = zones.containsKey(yearKey)
+                    ? sharedScan(year, startMonth, town, zones.get(yearKey).get("start"), zones.get(yearKey).get("end"))
+                    : new ArrayList<>();
+            Stratum exact = new Stratum(); // the full result set as a single fully-sampled stratum gives zero-width intervals
+            for (String[] row : filteredData) {
+                exact.sample.add(new double[] { Double.parseDouble(row[0]), Double.parseDouble(row[1]) });
+            }
+            exact.population = exact.sample.size();
+            stats = computeApproxStatistics(List.of(exact));
+        }
+        long endTime = System.nanoTime();
+        System.out.println("Query Time: " + String.format("%.3f", (endTime - startTime) / 1_000_000.0) + " ms");
+        writeApproxStatisticsToCSV(stats, year, startMonth, town,
+                "output/ScanResult_" + matricNo + "_Approx.csv");
+    }
+
 
 
     //// Query helper functions for recyclability
@@ -551,6 +642,124 @@ class HDBResaleColumnStore {
         return Math.sqrt(variance);
     }
 
+    // Compute approximate statistics from the sampled strata. Each value is {estimate, CI lower, CI upper}.
+    public static Map<String, double[]> computeApproxStatistics(List<Stratum> strata) {
+        Map<String, double[]> stats = new LinkedHashMap<>();
+        int population = strata.stream().mapToInt(s -> s.population).sum();
+        String[] categories = { "Average Price", "Standard Deviation of Price", "Median Price", "90th Percentile Price",
+                "Average Price per Square Meter", "Median Price per Square Meter", "90th Percentile Price per Square Meter" };
+        if (population == 0) {
+            for (String category : categories) {
+                stats.put(category, new double[] { -1.0, -1.0, -1.0 });
+            }
+            return stats;
+        }
+
+        List<List<Double>> prices = new ArrayList<>();
+        List<List<Double>> pricePerSqm = new ArrayList<>();
+        for (Stratum stratum : strata) {
+            prices.add(stratum.sample.stream().map(row -> row[0]).collect(Collectors.toList()));
+            pricePerSqm.add(stratum.sample.stream().map(row -> row[0] / row[1]).collect(Collectors.toList()));
+        }
+
+        stats.put("Average Price", estimateMean(strata, prices, population));
+        stats.put("Standard Deviation of Price", estimateStandardDeviation(strata, prices, population));
+        stats.put("Median Price", estimatePercentile(strata, prices, population, 0.5));
+        stats.put("90th Percentile Price", estimatePercentile(strata, prices, population, 0.9));
+        stats.put("Average Price per Square Meter", estimateMean(strata, pricePerSqm, population));
+        stats.put("Median Price per Square Meter", estimatePercentile(strata, pricePerSqm, population, 0.5));
+        stats.put("90th Percentile Price per Square Meter", estimatePercentile(strata, pricePerSqm, population, 0.9));
+        return stats;
+    }
+
+    // Stratified mean with the finite population corrected variance of each stratum
+    private static double[] estimateMean(List<Stratum> strata, List<List<Double>> values, int population) {
+        double mean = 0.0, variance = 0.0;
+        for (int h = 0; h < strata.size(); h++) {
+            List<Double> sample = values.get(h);
+            if (sample.isEmpty())
+                continue;
+            int n = sample.size();
+            double share = (double) strata.get(h).population / population;
+            double sampleMean = sample.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
+            double sampleStdDev = computeStandardDeviation(sample, sampleMean);
+            mean += share * sampleMean;
+            variance += share * share * (1 - (double) n / strata.get(h).population) * sampleStdDev * sampleStdDev / n;
+        }
+        double halfWidth = APPROX_Z * Math.sqrt(variance);
+        return new double[] { mean, mean - halfWidth, mean + halfWidth };
+    }
+
+    // Weighted standard deviation, with a normal-theory interval based on the effective sample size
+    private static double[] estimateStandardDeviation(List<Stratum> strata, List<List<Double>> values, int population) {
+        double mean = estimateMean(strata, values, population)[0];
+        double sumSquares = 0.0;
+        for (int h = 0; h < strata.size(); h++) {
+            List<Double> sample = values.get(h);
+            double weight = (double) strata.get(h).population / sample.size();
+            for (double v : sample) {
+                sumSquares += weight * (v - mean) * (v - mean);
+            }
+        }
+        double stdDev = population <= 1 ? 0.0 : Math.sqrt(sumSquares / (population - 1));
+        double effectiveSize = effectiveSampleSize(strata);
+        double halfWidth = effectiveSize <= 1 ? 0.0
+                : APPROX_Z * stdDev * Math.sqrt(samplingFraction(strata) / (2 * (effectiveSize - 1)));
+        return new double[] { stdDev, Math.max(0.0, stdDev - halfWidth), stdDev + halfWidth };
+    }
+
+    // Weighted percentile, with a Woodruff interval obtained by inverting the confidence band of the estimated CDF
+    private static double[] estimatePercentile(List<Stratum> strata, List<List<Double>> values, int population, double p) {
+        List<double[]> weighted = new ArrayList<>(); // {value, weight}
+        for (int h = 0; h < strata.size(); h++) {
+            List<Double> sample = values.get(h);
+            double weight = (double) strata.get(h).population / sample.size();
+            for (double v : sample) {
+                weighted.add(new double[] { v, weight });
+            }
+        }
+        weighted.sort(Comparator.comparingDouble(row -> row[0]));
+
+        double se = Math.sqrt(samplingFraction(strata) * p * (1 - p) / effectiveSampleSize(strata));
+        return new double[] {
+                weightedQuantile(weighted, population, p),
+                weightedQuantile(weighted, population, Math.max(0.0, p - APPROX_Z * se)),
+                weightedQuantile(weighted, population, Math.min(1.0, p + APPROX_Z * se)) };
+    }
+
+    // Smallest sampled value whose cumulative weight reaches p of the population
+    private static double weightedQuantile(List<double[]> weighted, int population, double p) {
+        double cumulative = 0.0;
+        for (double[] row : weighted) {
+            cumulative += row[1];
+            if (cumulative >= p * population - 1e-9) {
+                return row[0];
+            }
+        }
+        return weighted.get(weighted.size() - 1)[0];
+    }
+
+    // Kish effective sample size of the weighted sample
+    private static double effectiveSampleSize(List<Stratum> strata) {
+        double sumWeights = 0.0, sumSquaredWeights = 0.0;
+        for (Stratum stratum : strata) {
+            int n = stratum.sample.size();
+            if (n == 0)
+                continue;
+            double weight = (double) stratum.population / n;
+            sumWeights += n * weight;
+            sumSquaredWeights += n * weight * weight;
+        }
+        return sumSquaredWeights == 0 ? 0.0 : sumWeights * sumWeights / sumSquaredWeights;
+    }
+
+    // Finite population correction (1 - n/N) over all strata, zero when every row was sampled
+    private static double samplingFraction(List<Stratum> strata) {
+        int sampled = strata.stream().mapToInt(s -> s.sample.size()).sum();
+        int population = strata.stream().mapToInt(s -> s.population).sum();
+        return population == 0 ? 0.0 : 1 - (double) sampled / population;
+    }
+
     private static void writeStatisticsToCSV(Map<String, Double> stats, int year, int startMonth, String town, String outputFile) throws IOException {
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(outputFile))) {
             writer.write("Year,Month,Town,Category,Value\n");
@@ -572,6 +781,26 @@ class HDBResaleColumnStore {
         }
     }
 
+    private static void writeApproxStatisticsToCSV(Map<String, double[]> stats, int year, int startMonth, String town, String outputFile) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(outputFile))) {
+            writer.write("Year,Month,Town,Category,Value,CI Lower,CI Upper\n");
+
+            System.out.println("\nResults for Year: " + year + ", Month: " + startMonth + ", Town: " + town);
+            System.out.println("=================================================");
+            if (stats.values().stream().allMatch(value -> value[0] == -1.0)) { // same "No result" convention as writeStatisticsToCSV
+                writer.write(year + "," + startMonth + "," + town + ", No result\n");
+                System.out.println("No result");
+            } else {
+                for (var entry : stats.entrySet()) {
+                    double[] v = entry.getValue();
+                    writer.write(year + "," + startMonth + "," + town + "," + entry.getKey() + ","
+                            + String.format("%.2f,%.2f,%.2f", v[0], v[1], v[2]) + "\n");
+                    System.out.println(entry.getKey() + " = " + String.format("%.2f (95%% CI: %.2f - %.2f)", v[0], v[1], v[2]));
+                }
+            }
+        }
+    }
+
     // Extract matriculation number to get year, month, and town
     
     private static QueryParams matricExtraction(String userInput) {
@@ -620,6 +849,9 @@ class HDBResaleColumnStore {
         // Generate zones for zone mapping
         Map<String, Map<String, Integer>> zones = generateZones();
 
+        // Build stratified sample for approximate queries
+        buildStratifiedSample(APPROX_SAMPLE_PER_STRATUM);
+
         try (Scanner userInput = new Scanner(System.in)) {
             // Prompt user for matriculation number
             while (true) {
@@ -661,6 +893,10 @@ class HDBResaleColumnStore {
             // Zone Mapping + Shared Scan Query
             System.out.println("\nRunning Zone Mapping + Shared Scan Query...");
             zmssQuery(matricNo, year, startMonth, town, zones);
+
+            // Approximate Query
+            System.out.println("\nRunning Approximate Query...");
+            approxQuery(matricNo, year, startMonth, town, zones, APPROX_ERROR_BOUND);
             }
             
         } catch (Exception e) {